@@ -0,0 +1,17 @@
+#!/bin/sh
+# Compila, empaqueta y ejecuta BibliotecaGUI con un archivo CDS (Class Data Sharing) de la aplicación.
+# La primera ejecución genera out/biblioteca.jsa al cerrar la ventana; las siguientes lo
+# reutilizan y arrancan más rápido (JDK 19+).
+# CDS solo admite clases empaquetadas en JAR y comprueba la fecha y el tamaño del JAR, por eso
+# el JAR solo se regenera cuando la fuente es más reciente; si cambia, la JVM regenera el archivo CDS.
+# Solo se compila BibliotecaGUI.java: SimulacionCarga usa hilos virtuales y necesita JDK 21.
+set -e
+cd "$(dirname "$0")/.."
+if [ ! -f out/biblioteca.jar ] || [ src/BibliotecaGUI.java -nt out/biblioteca.jar ]; then
+    rm -rf out/cds
+    mkdir -p out/cds/clases
+    javac -d out/cds/clases src/BibliotecaGUI.java
+    jar --create --file out/biblioteca.jar --main-class BibliotecaGUI -C out/cds/clases .
+fi
+exec java -XX:+AutoCreateSharedArchive -XX:SharedArchiveFile=out/biblioteca.jsa \
+    -jar out/biblioteca.jar "$@"
@@ -4,8 +4,24 @@
 import javax.swing.*;
 import java.awt.*;
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 // Clase Libro con patrón Builder
 // **Principios SOLID**:
@@ -209,6 +225,15 @@ interface Repositorio<T> {
     ArrayList<T> obtenerTodos(); // Obtiene todas las entidades del repositorio
     void eliminar(String id); // Elimina una entidad del repositorio
     void agregarObservador(Observador observador); // Agrega un observador al repositorio
+    void agregarObservadorEntidad(ObservadorEntidad<T> observador); // Agrega un observador que recibe las entidades cambiadas
+    // Devuelve todas las entidades y registra el observador de forma atómica:
+    // el observador recibe exactamente los cambios posteriores a la lista devuelta
+    ArrayList<T> obtenerTodosYObservar(ObservadorEntidad<T> observador);
+
+    // Precarga el repositorio en memoria (caché e índices) para que la primera operación no lea el archivo
+    default void precargar() {
+        obtenerTodos();
+    }
 }
 
 // Interfaz Observador para el Patrón Observer
@@ -217,6 +242,13 @@ interface Observador {
     void actualizar();
 }
 
+// Interfaz ObservadorEntidad para el Patrón Observer con el detalle del cambio
+// Permite a los observadores actualizarse de forma incremental sin releer el archivo.
+interface ObservadorEntidad<T> {
+    void entidadGuardada(T entidad); // Se llama después de guardar una entidad
+    void entidadesEliminadas(List<T> entidades); // Se llama después de eliminar una o más entidades
+}
+
 // Implementación del Repositorio de Libros con Singleton y DAO
 // **Principios SOLID**:
 // - SRP: Gestiona exclusivamente la persistencia de los libros.
@@ -228,7 +260,10 @@ interface Observador {
 class LibroRepositorio implements Repositorio<Libro> {
     private static LibroRepositorio instancia; // Singleton: Instancia única del repositorio
     private List<Observador> observadores = new ArrayList<>(); // Observadores registrados
+    private List<ObservadorEntidad<Libro>> observadoresEntidad = new ArrayList<>(); // Observadores del detalle de cambios
     private static final String NOMBRE_ARCHIVO = "libros.txt"; // Nombre del archivo de libros
+    private final IndiceClaves indice = new IndiceClaves(NOMBRE_ARCHIVO, "libros.bloom", 6); // Índice de códigos únicos
+    private ArrayList<Libro> cache; // Caché en memoria del archivo (se llena en la primera lectura o en la precarga)
 
     // Constructor privado para implementar Singleton
     private LibroRepositorio() {}
@@ -242,17 +277,40 @@ class LibroRepositorio implements Repositorio<Libro> {
     }
 
     // Implementación de métodos de la interfaz Repositorio, Metodo para guardar un libro en el archivo
+    // Lanza IllegalArgumentException si el código está vacío o ya existe un libro con el mismo código
+    // e IllegalStateException si no se pudo escribir en el archivo
     @Override
-    public void guardar(Libro libro) {
+    public synchronized void guardar(Libro libro) {
+        if (libro.getCodigo() == null || libro.getCodigo().isBlank()) {
+            throw new IllegalArgumentException("El código del libro no puede estar vacío");
+        }
+        if (indice.contiene(libro.getCodigo())) {
+            throw new IllegalArgumentException("Ya existe un libro con el código " + libro.getCodigo());
+        }
         String contenido = libro.getCodigo() + ";" + libro.getTitulo() + ";" + libro.getAutor().getNombre() + ";"
                 + libro.getLocalizacion() + ";" + libro.getSignatura() + ";" + libro.isDisponible() + "\n";
-        UtilidadesArchivos.escribirEnArchivo(NOMBRE_ARCHIVO, contenido, true);
+        if (!UtilidadesArchivos.escribirEnArchivo(NOMBRE_ARCHIVO, contenido, true)) {
+            throw new IllegalStateException("No se pudo guardar el libro " + libro.getCodigo());
+        }
+        indice.registrar(libro.getCodigo()); // Solo se registra si la línea llegó al archivo
+        if (cache != null) {
+            cache.add(libro);
+        }
         notificarObservadores();
+        notificarGuardado(libro);
     }
 
-    // Metodo para obtener todos los libros del archivo
+    // Metodo para obtener todos los libros (desde la caché en memoria)
     @Override
-    public ArrayList<Libro> obtenerTodos() {
+    public synchronized ArrayList<Libro> obtenerTodos() {
+        if (cache == null) {
+            cache = leerTodos();
+        }
+        return new ArrayList<>(cache);
+    }
+
+    // Metodo para leer todos los libros del archivo
+    private ArrayList<Libro> leerTodos() {
         ArrayList<Libro> libros = new ArrayList<>();
         ArrayList<String> lineas = UtilidadesArchivos.leerArchivo(NOMBRE_ARCHIVO);
         for (String linea : lineas) {
@@ -273,12 +331,29 @@ class LibroRepositorio implements Repositorio<Libro> {
     }
 
     // Metodo para eliminar un libro por su código
+    // Lanza IllegalStateException si no se pudo reescribir el archivo (no se modifica el índice ni se notifica)
     @Override
-    public void eliminar(String codigoLibro) {
+    public synchronized void eliminar(String codigoLibro) {
         ArrayList<Libro> libros = obtenerTodos();
-        libros.removeIf(libro -> libro.getCodigo().equals(codigoLibro)); // Elimina el libro con el código especificado
-        guardarTodos(libros); // Guarda los libros restantes en el archivo
+        ArrayList<Libro> eliminados = new ArrayList<>();
+        for (Libro libro : libros) {
+            if (libro.getCodigo().equals(codigoLibro)) {
+                eliminados.add(libro);
+            }
+        }
+        libros.removeAll(eliminados); // Elimina el libro con el código especificado
+        if (!guardarTodos(libros)) { // Guarda los libros restantes en el archivo
+            cache = null; // El archivo pudo quedar a medias: se vuelve a leer en la próxima consulta
+            throw new IllegalStateException("No se pudo eliminar el libro " + codigoLibro);
+        }
+        cache = libros;
+        ArrayList<String> codigos = new ArrayList<>();
+        for (Libro libro : libros) {
+            codigos.add(libro.getCodigo());
+        }
+        indice.reconstruir(codigos); // El filtro de Bloom no admite borrados, se reconstruye
         notificarObservadores(); // Notifica a los observadores registrados
+        notificarEliminados(eliminados);
     }
 
     // Metodo para agregar un observador al repositorio
@@ -287,8 +362,27 @@ class LibroRepositorio implements Repositorio<Libro> {
         observadores.add(observador);
     }
 
+    // Metodo para precargar el archivo y el índice de códigos
+    @Override
+    public synchronized void precargar() {
+        obtenerTodos();
+        indice.precargar();
+    }
+
+    // Metodo para agregar un observador que recibe los libros guardados y eliminados
+    @Override
+    public synchronized void agregarObservadorEntidad(ObservadorEntidad<Libro> observador) {
+        observadoresEntidad.add(observador);
+    }
+    // Metodo para obtener los libros y empezar a observar los cambios sin perder ni repetir ninguno
+    @Override
+    public synchronized ArrayList<Libro> obtenerTodosYObservar(ObservadorEntidad<Libro> observador) {
+        observadoresEntidad.add(observador);
+        return obtenerTodos();
+    }
+
     // Metodo para guardar todos los libros en el archivo
-    private void guardarTodos(ArrayList<Libro> libros) {
+    private boolean guardarTodos(ArrayList<Libro> libros) {
         StringBuilder contenido = new StringBuilder();
         for (Libro libro : libros) {
             contenido.append(libro.getCodigo()).append(";")
@@ -299,7 +393,7 @@ class LibroRepositorio implements Repositorio<Libro> {
                     .append(libro.getSignatura()).append(";")
                     .append(libro.isDisponible()).append("\n");
         }
-        UtilidadesArchivos.escribirEnArchivo(NOMBRE_ARCHIVO, contenido.toString(), false);
+        return UtilidadesArchivos.escribirEnArchivo(NOMBRE_ARCHIVO, contenido.toString(), false);
     }
 
     // Metodo para notificar a los observadores registrados
@@ -308,6 +402,19 @@ class LibroRepositorio implements Repositorio<Libro> {
             observador.actualizar();
         }
     }
+
+    // Metodos para notificar el detalle de los cambios a los observadores de entidades
+    private void notificarGuardado(Libro libro) {
+        for (ObservadorEntidad<Libro> observador : observadoresEntidad) {
+            observador.entidadGuardada(libro);
+        }
+    }
+
+    private void notificarEliminados(List<Libro> libros) {
+        for (ObservadorEntidad<Libro> observador : observadoresEntidad) {
+            observador.entidadesEliminadas(libros);
+        }
+    }
 }
 
 // Implementación de SocioRepositorio y PrestamoRepositorio
@@ -317,7 +424,10 @@ class LibroRepositorio implements Repositorio<Libro> {
 class SocioRepositorio implements Repositorio<Socio> {
     private static SocioRepositorio instancia; // Singleton: Instancia única del repositorio
     private List<Observador> observadores = new ArrayList<>();// Observadores registrados
+    private List<ObservadorEntidad<Socio>> observadoresEntidad = new ArrayList<>();// Observadores del detalle de cambios
     private static final String NOMBRE_ARCHIVO = "socios.txt";// Nombre del archivo de socios
+    private final IndiceClaves indice = new IndiceClaves(NOMBRE_ARCHIVO, "socios.bloom", 3); // Índice de DNIs únicos
+    private ArrayList<Socio> cache; // Caché en memoria del archivo (se llena en la primera lectura o en la precarga)
 
     private SocioRepositorio() {}
     // Singleton: Instancia única del repositorio de socios
@@ -329,16 +439,39 @@ class SocioRepositorio implements Repositorio<Socio> {
     }
     // Implementación de métodos de la interfaz Repositorio
     // Metodo para guardar un socio en el archivo
+    // Lanza IllegalArgumentException si el DNI está vacío o ya existe un socio con el mismo DNI
+    // e IllegalStateException si no se pudo escribir en el archivo
     @Override
-    public void guardar(Socio socio) {
+    public synchronized void guardar(Socio socio) {
+        if (socio.getNumero() == null || socio.getNumero().isBlank()) {
+            throw new IllegalArgumentException("El DNI del socio no puede estar vacío");
+        }
+        if (indice.contiene(socio.getNumero())) {
+            throw new IllegalArgumentException("Ya existe un socio con el DNI " + socio.getNumero());
+        }
         String contenido = socio.getNumero() + ";" + socio.getNombre() + ";" + socio.getDireccion() + "\n";
-        UtilidadesArchivos.escribirEnArchivo(NOMBRE_ARCHIVO, contenido, true);
+        if (!UtilidadesArchivos.escribirEnArchivo(NOMBRE_ARCHIVO, contenido, true)) {
+            throw new IllegalStateException("No se pudo guardar el socio " + socio.getNumero());
+        }
+        indice.registrar(socio.getNumero()); // Solo se registra si la línea llegó al archivo
+        if (cache != null) {
+            cache.add(socio);
+        }
         notificarObservadores();
+        notificarGuardado(socio);
     }
 
-    // Metodo para obtener todos los socios del archivo
+    // Metodo para obtener todos los socios (desde la caché en memoria)
     @Override
-    public ArrayList<Socio> obtenerTodos() {
+    public synchronized ArrayList<Socio> obtenerTodos() {
+        if (cache == null) {
+            cache = leerTodos();
+        }
+        return new ArrayList<>(cache);
+    }
+
+    // Metodo para leer todos los socios del archivo
+    private ArrayList<Socio> leerTodos() {
         ArrayList<Socio> socios = new ArrayList<>();
         ArrayList<String> lineas = UtilidadesArchivos.leerArchivo(NOMBRE_ARCHIVO);
         for (String linea : lineas) {
@@ -350,27 +483,61 @@ class SocioRepositorio implements Repositorio<Socio> {
         return socios;
     }
     // Metodo para eliminar un socio por su número
+    // Lanza IllegalStateException si no se pudo reescribir el archivo (no se modifica el índice ni se notifica)
     @Override
-    public void eliminar(String numeroSocio) {
+    public synchronized void eliminar(String numeroSocio) {
         ArrayList<Socio> socios = obtenerTodos();
-        socios.removeIf(socio -> socio.getNumero().equals(numeroSocio));
-        guardarTodos(socios);
+        ArrayList<Socio> eliminados = new ArrayList<>();
+        for (Socio socio : socios) {
+            if (socio.getNumero().equals(numeroSocio)) {
+                eliminados.add(socio);
+            }
+        }
+        socios.removeAll(eliminados);
+        if (!guardarTodos(socios)) {
+            cache = null; // El archivo pudo quedar a medias: se vuelve a leer en la próxima consulta
+            throw new IllegalStateException("No se pudo eliminar el socio " + numeroSocio);
+        }
+        cache = socios;
+        ArrayList<String> numeros = new ArrayList<>();
+        for (Socio socio : socios) {
+            numeros.add(socio.getNumero());
+        }
+        indice.reconstruir(numeros);
         notificarObservadores();
+        notificarEliminados(eliminados);
     }
     // Metodo para agregar un observador al repositorio
     @Override
     public void agregarObservador(Observador observador) {
         observadores.add(observador);
     }
+    // Metodo para precargar el archivo y el índice de DNIs
+    @Override
+    public synchronized void precargar() {
+        obtenerTodos();
+        indice.precargar();
+    }
+    // Metodo para agregar un observador que recibe los socios guardados y eliminados
+    @Override
+    public synchronized void agregarObservadorEntidad(ObservadorEntidad<Socio> observador) {
+        observadoresEntidad.add(observador);
+    }
+    // Metodo para obtener los socios y empezar a observar los cambios sin perder ni repetir ninguno
+    @Override
+    public synchronized ArrayList<Socio> obtenerTodosYObservar(ObservadorEntidad<Socio> observador) {
+        observadoresEntidad.add(observador);
+        return obtenerTodos();
+    }
     // Metodo para guardar todos los socios en el archivo
-    private void guardarTodos(ArrayList<Socio> socios) {
+    private boolean guardarTodos(ArrayList<Socio> socios) {
         StringBuilder contenido = new StringBuilder();
         for (Socio socio : socios) {
             contenido.append(socio.getNumero()).append(";")
                     .append(socio.getNombre()).append(";")
                     .append(socio.getDireccion()).append("\n");
         }
-        UtilidadesArchivos.escribirEnArchivo(NOMBRE_ARCHIVO, contenido.toString(), false);
+        return UtilidadesArchivos.escribirEnArchivo(NOMBRE_ARCHIVO, contenido.toString(), false);
     }
     // Metodo para notificar a los observadores registrados
     private void notificarObservadores() {
@@ -379,6 +546,18 @@ class SocioRepositorio implements Repositorio<Socio> {
             observador.actualizar();
         }
     }
+    // Metodos para notificar el detalle de los cambios a los observadores de entidades
+    private void notificarGuardado(Socio socio) {
+        for (ObservadorEntidad<Socio> observador : observadoresEntidad) {
+            observador.entidadGuardada(socio);
+        }
+    }
+
+    private void notificarEliminados(List<Socio> socios) {
+        for (ObservadorEntidad<Socio> observador : observadoresEntidad) {
+            observador.entidadesEliminadas(socios);
+        }
+    }
 }
 
 // Implementación del Repositorio de Préstamos con Singleton y DAO
@@ -388,7 +567,9 @@ class SocioRepositorio implements Repositorio<Socio> {
 class PrestamoRepositorio implements Repositorio<Prestamo> {
     private static PrestamoRepositorio instancia; // Singleton: Instancia única del repositorio
     private List<Observador> observadores = new ArrayList<>();
+    private List<ObservadorEntidad<Prestamo>> observadoresEntidad = new ArrayList<>();
     private static final String NOMBRE_ARCHIVO = "prestamos.txt";
+    private ArrayList<Prestamo> cache; // Caché en memoria del archivo
 
     private PrestamoRepositorio() {}
     // Singleton: Instancia única del repositorio
@@ -400,14 +581,27 @@ class PrestamoRepositorio implements Repositorio<Prestamo> {
     }
     // Implementación de métodos de la interfaz Repositorio para Prestamo (métodos similares a LibroRepositorio)
     @Override
-    public void guardar(Prestamo prestamo) {
+    public synchronized void guardar(Prestamo prestamo) {
         String contenido = prestamo.getNumeroSocio() + ";" + prestamo.getCodigoLibro() + ";" + prestamo.getFechaPrestamo() + "\n";
-        UtilidadesArchivos.escribirEnArchivo(NOMBRE_ARCHIVO, contenido, true);
+        if (!UtilidadesArchivos.escribirEnArchivo(NOMBRE_ARCHIVO, contenido, true)) {
+            throw new IllegalStateException("No se pudo guardar el préstamo del libro " + prestamo.getCodigoLibro());
+        }
+        if (cache != null) {
+            cache.add(prestamo);
+        }
         notificarObservadores();
+        notificarGuardado(prestamo);
     }
-    // Metodo para obtener todos los préstamos del archivo
+    // Metodo para obtener todos los préstamos (desde la caché en memoria)
     @Override
-    public ArrayList<Prestamo> obtenerTodos() {
+    public synchronized ArrayList<Prestamo> obtenerTodos() {
+        if (cache == null) {
+            cache = leerTodos();
+        }
+        return new ArrayList<>(cache);
+    }
+    // Metodo para leer todos los préstamos del archivo
+    private ArrayList<Prestamo> leerTodos() {
         ArrayList<Prestamo> prestamos = new ArrayList<>();
         ArrayList<String> lineas = UtilidadesArchivos.leerArchivo(NOMBRE_ARCHIVO);
         for (String linea : lineas) {
@@ -419,27 +613,50 @@ class PrestamoRepositorio implements Repositorio<Prestamo> {
         return prestamos;
     }
     // Metodo para eliminar un préstamo por el código del libro
+    // Lanza IllegalStateException si no se pudo reescribir el archivo (no se notifica a los observadores)
     @Override
-    public void eliminar(String id) {
+    public synchronized void eliminar(String id) {
         ArrayList<Prestamo> prestamos = obtenerTodos();
-        prestamos.removeIf(prestamo -> prestamo.getCodigoLibro().equals(id));
-        guardarTodos(prestamos);
+        ArrayList<Prestamo> eliminados = new ArrayList<>();
+        for (Prestamo prestamo : prestamos) {
+            if (prestamo.getCodigoLibro().equals(id)) {
+                eliminados.add(prestamo);
+            }
+        }
+        prestamos.removeAll(eliminados);
+        if (!guardarTodos(prestamos)) {
+            cache = null; // El archivo pudo quedar a medias: se vuelve a leer en la próxima consulta
+            throw new IllegalStateException("No se pudieron eliminar los préstamos del libro " + id);
+        }
+        cache = prestamos;
         notificarObservadores();
+        notificarEliminados(eliminados);
     }
     // Metodo para agregar un observador al repositorio de préstamos
     @Override
     public void agregarObservador(Observador observador) {
         observadores.add(observador);
     }
+    // Metodo para agregar un observador que recibe los préstamos guardados y eliminados
+    @Override
+    public synchronized void agregarObservadorEntidad(ObservadorEntidad<Prestamo> observador) {
+        observadoresEntidad.add(observador);
+    }
+    // Metodo para obtener los préstamos y empezar a observar los cambios sin perder ni repetir ninguno
+    @Override
+    public synchronized ArrayList<Prestamo> obtenerTodosYObservar(ObservadorEntidad<Prestamo> observador) {
+        observadoresEntidad.add(observador);
+        return obtenerTodos();
+    }
     // Metodo para guardar todos los préstamos en el archivo
-    private void guardarTodos(ArrayList<Prestamo> prestamos) {
+    private boolean guardarTodos(ArrayList<Prestamo> prestamos) {
         StringBuilder contenido = new StringBuilder();
         for (Prestamo prestamo : prestamos) {
             contenido.append(prestamo.getNumeroSocio()).append(";")
                     .append(prestamo.getCodigoLibro()).append(";")
                     .append(prestamo.getFechaPrestamo()).append("\n");
         }
-        UtilidadesArchivos.escribirEnArchivo(NOMBRE_ARCHIVO, contenido.toString(), false);
+        return UtilidadesArchivos.escribirEnArchivo(NOMBRE_ARCHIVO, contenido.toString(), false);
     }
 
     private void notificarObservadores() {
@@ -448,22 +665,46 @@ class PrestamoRepositorio implements Repositorio<Prestamo> {
             observador.actualizar();
         }
     }
+
+    private void notificarGuardado(Prestamo prestamo) {
+        for (ObservadorEntidad<Prestamo> observador : observadoresEntidad) {
+            observador.entidadGuardada(prestamo);
+        }
+    }
+
+    private void notificarEliminados(List<Prestamo> prestamos) {
+        for (ObservadorEntidad<Prestamo> observador : observadoresEntidad) {
+            observador.entidadesEliminadas(prestamos);
+        }
+    }
 }
 
 // Clase UtilidadesArchivos para manejo de archivos
 // Principio SRP: Esta clase tiene una única responsabilidad que es la manipulación de archivos.
 class UtilidadesArchivos {
-    public static void escribirEnArchivo(String nombreArchivo, String contenido, boolean append) {
-        try (BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(nombreArchivo, append))) {
+    // Directorio de los archivos de datos; por defecto el directorio de trabajo.
+    // Se puede cambiar con -Dbiblioteca.directorioDatos=<ruta> (lo usa, por ejemplo, SimulacionCarga).
+    private static final String DIRECTORIO_DATOS = System.getProperty("biblioteca.directorioDatos");
+
+    // Metodo para obtener la ruta de un archivo de datos dentro del directorio de datos
+    public static String ruta(String nombreArchivo) {
+        return DIRECTORIO_DATOS == null ? nombreArchivo : Paths.get(DIRECTORIO_DATOS, nombreArchivo).toString();
+    }
+
+    // Metodo para escribir en un archivo; devuelve false si la escritura falló
+    public static boolean escribirEnArchivo(String nombreArchivo, String contenido, boolean append) {
+        try (BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(ruta(nombreArchivo), append))) {
             bufferedWriter.write(contenido);
+            return true;
         } catch (IOException e) {
             System.out.println("Error escribiendo en archivo: " + e.getMessage());
+            return false;
         }
     }
     // Metodo para leer un archivo y devolver las líneas como una lista de cadenas
     public static ArrayList<String> leerArchivo(String nombreArchivo) {
         ArrayList<String> lineas = new ArrayList<>();
-        try (BufferedReader bufferedReader = new BufferedReader(new FileReader(nombreArchivo))) {
+        try (BufferedReader bufferedReader = new BufferedReader(new FileReader(ruta(nombreArchivo)))) {
             String linea;
             while ((linea = bufferedReader.readLine()) != null) {
                 lineas.add(linea);
@@ -475,6 +716,553 @@ class UtilidadesArchivos {
     }
 }
 
+// Clase FiltroBloom para descartar rápidamente claves que no existen
+// **Principios SOLID**:
+// - SRP: Solo responde si una clave "puede existir" o "definitivamente no existe".
+// Usa doble hashing sobre un FNV-1a de 64 bits; con 10 bits por elemento y 7 funciones hash
+// la tasa de falsos positivos ronda el 1%. Nunca da falsos negativos.
+class FiltroBloom {
+    private static final int MAGICO = 0x424C4F4D;      // Cabecera del archivo persistido ("BLOM")
+    private static final int BITS_POR_ELEMENTO = 10;   // Bits reservados por cada clave esperada
+    private static final int NUM_HASHES = 7;           // Número de funciones hash
+    private final long[] bits;                         // Arreglo de bits del filtro
+    private final int numBits;                         // Tamaño del filtro en bits
+    private final int capacidad;                       // Número de claves para el que fue dimensionado
+    private int elementos;                             // Claves agregadas hasta ahora
+
+    private FiltroBloom(int capacidad, long[] bits, int elementos) {
+        this.capacidad = capacidad;
+        this.bits = bits;
+        this.numBits = bits.length * 64;
+        this.elementos = elementos;
+    }
+
+    // Metodo fábrica para crear un filtro vacío dimensionado para la capacidad indicada
+    public static FiltroBloom paraCapacidad(int capacidad) {
+        long totalBits = (long) capacidad * BITS_POR_ELEMENTO;
+        return new FiltroBloom(capacidad, new long[(int) ((totalBits + 63) / 64)], 0);
+    }
+
+    public void agregar(String clave) {
+        long hash = hash64(clave);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < NUM_HASHES; i++) {
+            int posicion = Math.floorMod(h1 + i * h2, numBits);
+            bits[posicion >>> 6] |= 1L << posicion;
+        }
+        elementos++;
+    }
+
+    // Devuelve false solo si la clave definitivamente no fue agregada
+    public boolean puedeContener(String clave) {
+        long hash = hash64(clave);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < NUM_HASHES; i++) {
+            int posicion = Math.floorMod(h1 + i * h2, numBits);
+            if ((bits[posicion >>> 6] & (1L << posicion)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    public int getElementos() {
+        return elementos;
+    }
+
+    // Metodo para persistir el filtro junto con la huella del archivo de datos que resume
+    // (se escribe en un temporal y se renombra para no dejar archivos a medias)
+    public void guardar(String nombreArchivo, long longitudDatos, long modificacionDatos) {
+        Path destino = Paths.get(nombreArchivo);
+        Path temporal = Paths.get(nombreArchivo + ".tmp");
+        try (DataOutputStream salida = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporal)))) {
+            salida.writeInt(MAGICO);
+            salida.writeLong(longitudDatos);
+            salida.writeLong(modificacionDatos);
+            salida.writeInt(capacidad);
+            salida.writeInt(elementos);
+            salida.writeInt(bits.length);
+            for (long palabra : bits) {
+                salida.writeLong(palabra);
+            }
+        } catch (IOException e) {
+            System.out.println("Error escribiendo filtro de Bloom: " + e.getMessage());
+            return;
+        }
+        try {
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("Error escribiendo filtro de Bloom: " + e.getMessage());
+        }
+    }
+
+    // Metodo para cargar un filtro persistido; devuelve null si no existe, está corrupto
+    // o no corresponde al estado actual del archivo de datos (por ejemplo, tras un cierre abrupto)
+    public static FiltroBloom cargar(String nombreArchivo, long longitudDatos, long modificacionDatos) {
+        Path origen = Paths.get(nombreArchivo);
+        if (!Files.exists(origen)) {
+            return null;
+        }
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(origen)))) {
+            if (entrada.readInt() != MAGICO || entrada.readLong() != longitudDatos || entrada.readLong() != modificacionDatos) {
+                return null;
+            }
+            int capacidad = entrada.readInt();
+            int elementos = entrada.readInt();
+            long[] bits = new long[entrada.readInt()];
+            for (int i = 0; i < bits.length; i++) {
+                bits[i] = entrada.readLong();
+            }
+            return new FiltroBloom(capacidad, bits, elementos);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Filtro de Bloom inválido, se reconstruirá: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Hash FNV-1a de 64 bits sobre los caracteres de la clave
+    private static long hash64(String clave) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < clave.length(); i++) {
+            hash ^= clave.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
+
+// Clase IndiceClaves que garantiza la unicidad de la clave primaria de un archivo de datos
+// **Principios SOLID**:
+// - SRP: Solo mantiene el conjunto de claves existentes; los repositorios deciden qué hacer con él.
+// Consulta primero un FiltroBloom persistido, que resuelve sin leer el archivo de datos casi todas
+// las claves nuevas; solo ante un posible positivo se carga y consulta el índice exacto en memoria.
+// Si el filtro persistido no coincide con el archivo de datos (cierre abrupto, edición manual),
+// se reconstruye leyendo el archivo. La huella guardada con el filtro es la del archivo en el momento
+// en que se registró la última clave, así un guardado a medias al cerrar nunca parece válido.
+class IndiceClaves {
+    private static final int CAPACIDAD_MINIMA = 1024; // Capacidad inicial del filtro
+    private final String archivoDatos;                // Archivo con los registros (clave en la primera columna)
+    private final String archivoFiltro;               // Archivo donde se persiste el filtro de Bloom
+    private final int columnas;                       // Columnas de una línea válida (igual que al leer el repositorio)
+    private FiltroBloom filtro;                       // Filtro de Bloom (carga perezosa)
+    private Set<String> claves;                       // Índice exacto de claves (carga perezosa)
+    private boolean pendienteDePersistir;             // Indica si el filtro cambió desde la última persistencia
+    private long longitudDatos;                       // Huella del archivo de datos que refleja el filtro:
+    private long modificacionDatos;                   // se toma al registrar claves, no al persistir
+
+    public IndiceClaves(String archivoDatos, String archivoFiltro, int columnas) {
+        this.archivoDatos = archivoDatos;
+        this.archivoFiltro = archivoFiltro;
+        this.columnas = columnas;
+        // Al cerrar la aplicación se guarda el filtro; si el cierre es abrupto se reconstruirá al arrancar
+        Runtime.getRuntime().addShutdownHook(new Thread(this::persistirSiHayCambios));
+    }
+
+    // Metodo para comprobar si una clave ya existe
+    public synchronized boolean contiene(String clave) {
+        if (!obtenerFiltro().puedeContener(clave)) {
+            return false; // Definitivamente nueva, no hace falta consultar el índice exacto
+        }
+        return obtenerClaves().contains(clave);
+    }
+
+    // Metodo para registrar una clave recién guardada en el archivo de datos
+    public synchronized void registrar(String clave) {
+        FiltroBloom filtroActual = obtenerFiltro();
+        if (claves != null) {
+            claves.add(clave);
+        }
+        filtroActual.agregar(clave);
+        tomarHuella(); // El archivo ya contiene la línea de esta clave
+        pendienteDePersistir = true;
+        if (filtroActual.getElementos() > filtroActual.getCapacidad()) {
+            reconstruir(obtenerClaves()); // El filtro se llenó: se redimensiona para mantener la tasa de falsos positivos
+        }
+    }
+
+    // Metodo para reconstruir el índice a partir del conjunto completo de claves vigentes
+    // (se llama con el archivo de datos ya actualizado)
+    public synchronized void reconstruir(Collection<String> clavesVigentes) {
+        tomarHuella();
+        construir(clavesVigentes);
+    }
+
+    private void construir(Collection<String> clavesVigentes) {
+        claves = new HashSet<>(clavesVigentes);
+        filtro = FiltroBloom.paraCapacidad(Math.max(CAPACIDAD_MINIMA, claves.size() * 2));
+        for (String clave : claves) {
+            filtro.agregar(clave);
+        }
+        pendienteDePersistir = true;
+        persistirSiHayCambios();
+    }
+
+    // Metodo para cargar el índice por adelantado (evita pagar la lectura en la primera inserción)
+    public synchronized void precargar() {
+        obtenerFiltro();
+    }
+
+    private FiltroBloom obtenerFiltro() {
+        if (filtro == null) {
+            File datos = new File(UtilidadesArchivos.ruta(archivoDatos));
+            long longitud = datos.length();
+            long modificacion = datos.lastModified();
+            filtro = FiltroBloom.cargar(UtilidadesArchivos.ruta(archivoFiltro), longitud, modificacion);
+            if (filtro != null) {
+                longitudDatos = longitud;
+                modificacionDatos = modificacion;
+            } else {
+                // La huella se toma antes de leer: si el archivo cambia durante la lectura,
+                // el filtro persistido no coincidirá y se volverá a reconstruir
+                tomarHuella();
+                construir(leerClaves());
+            }
+        }
+        return filtro;
+    }
+
+    private Set<String> obtenerClaves() {
+        if (claves == null) {
+            claves = new HashSet<>(leerClaves());
+        }
+        return claves;
+    }
+
+    // Metodo para leer las claves (primera columna) del archivo de datos; solo cuenta las líneas
+    // que el repositorio también acepta al listar, para que índice y listados coincidan
+    private ArrayList<String> leerClaves() {
+        ArrayList<String> resultado = new ArrayList<>();
+        for (String linea : UtilidadesArchivos.leerArchivo(archivoDatos)) {
+            String[] datos = linea.split(";");
+            if (datos.length == columnas) {
+                resultado.add(datos[0]);
+            }
+        }
+        return resultado;
+    }
+
+    private synchronized void persistirSiHayCambios() {
+        if (filtro != null && pendienteDePersistir) {
+            filtro.guardar(UtilidadesArchivos.ruta(archivoFiltro), longitudDatos, modificacionDatos);
+            pendienteDePersistir = false;
+        }
+    }
+
+    // Metodo para anotar la longitud y la fecha actuales del archivo de datos
+    private void tomarHuella() {
+        File datos = new File(UtilidadesArchivos.ruta(archivoDatos));
+        longitudDatos = datos.length();
+        modificacionDatos = datos.lastModified();
+    }
+}
+
+// Clase EstadisticasCirculacion con los agregados de circulación de la biblioteca
+// **Principios SOLID**:
+// - SRP: Solo mantiene contadores de circulación; no lee ni escribe archivos directamente.
+// - DIP: Obtiene los datos a través de Repositorio<T> y de sus eventos ObservadorEntidad<T>.
+// **Patrones de diseño**:
+// - Observer: Los contadores se actualizan de forma incremental con cada libro o préstamo
+//   guardado o eliminado, por lo que las consultas no vuelven a recorrer los archivos.
+// El método recalcular() rehace todos los agregados desde cero con streams paralelos y sirve
+// para inicializar los contadores y para verificar que los incrementales no se han desviado.
+// La inicialización es perezosa (primera consulta) o explícita durante la precarga en segundo plano.
+// Los observadores se registran junto con la lectura de los repositorios (obtenerTodosYObservar),
+// así que cada cambio está en la lectura inicial o llega como evento, nunca en ambos; los eventos
+// que llegan mientras se calculan los contadores iniciales se encolan y se aplican después.
+class EstadisticasCirculacion {
+    private static final int TOP_K = 10; // Número de libros en el ranking de más prestados
+    private final Repositorio<Libro> libroRepositorio;
+    private final Repositorio<Prestamo> prestamoRepositorio;
+    private final ObservadorEntidad<Libro> observadorLibros;
+    private final ObservadorEntidad<Prestamo> observadorPrestamos;
+    private final Object bloqueoInicializacion = new Object(); // Evita inicializar dos veces
+    private final List<Runnable> cambiosPendientes = new ArrayList<>(); // Eventos recibidos durante la inicialización
+    private Agregados agregados = new Agregados(); // Contadores materializados
+    private volatile boolean inicializada; // Indica si los contadores ya se cargaron desde los archivos
+
+    // Contadores de circulación; se usa tanto para el estado incremental como para el recálculo completo
+    static class Agregados {
+        private final Map<String, Long> prestamosPorSocio = new HashMap<>();
+        private final Map<String, Long> prestamosPorLibro = new HashMap<>();
+        private final Map<String, Long> prestamosPorMes = new HashMap<>();
+        private final Map<String, Long> librosPorLocalizacion = new HashMap<>();
+        private final Map<String, Long> disponiblesPorLocalizacion = new HashMap<>();
+        private final Map<String, String> titulos = new HashMap<>(); // Código de libro -> título
+        private final List<String> masPrestados = new ArrayList<>(); // Top-K de códigos, de mayor a menor
+
+        // Orden del ranking: más préstamos primero y, a igualdad, por código
+        private final Comparator<String> ordenRanking = Comparator
+                .comparing((String codigo) -> prestamosPorLibro.getOrDefault(codigo, 0L)).reversed()
+                .thenComparing(Comparator.naturalOrder());
+
+        private void sumarLibro(Libro libro, long delta) {
+            sumar(librosPorLocalizacion, libro.getLocalizacion(), delta);
+            if (libro.isDisponible()) {
+                sumar(disponiblesPorLocalizacion, libro.getLocalizacion(), delta);
+            }
+            if (delta > 0) {
+                titulos.put(libro.getCodigo(), libro.getTitulo());
+            } else {
+                titulos.remove(libro.getCodigo());
+            }
+        }
+
+        private void sumarPrestamo(Prestamo prestamo) {
+            sumar(prestamosPorSocio, prestamo.getNumeroSocio(), 1);
+            sumar(prestamosPorMes, mesDe(prestamo.getFechaPrestamo()), 1);
+            String codigo = prestamo.getCodigoLibro();
+            sumar(prestamosPorLibro, codigo, 1);
+            if (masPrestados.contains(codigo)) {
+                masPrestados.sort(ordenRanking);
+            } else if (masPrestados.size() < TOP_K) {
+                masPrestados.add(codigo);
+                masPrestados.sort(ordenRanking);
+            } else if (ordenRanking.compare(codigo, masPrestados.get(TOP_K - 1)) < 0) {
+                masPrestados.set(TOP_K - 1, codigo);
+                masPrestados.sort(ordenRanking);
+            }
+        }
+
+        // Resta todos los préstamos eliminados y, si alguno estaba en el ranking, lo rehace una sola vez
+        private void restarPrestamos(List<Prestamo> prestamos) {
+            boolean rankingAfectado = false;
+            for (Prestamo prestamo : prestamos) {
+                sumar(prestamosPorSocio, prestamo.getNumeroSocio(), -1);
+                sumar(prestamosPorMes, mesDe(prestamo.getFechaPrestamo()), -1);
+                sumar(prestamosPorLibro, prestamo.getCodigoLibro(), -1);
+                rankingAfectado |= masPrestados.contains(prestamo.getCodigoLibro());
+            }
+            if (rankingAfectado) {
+                recalcularRanking(); // Un libro de fuera del ranking podría superarlo ahora
+            }
+        }
+
+        private void recalcularRanking() {
+            masPrestados.clear();
+            prestamosPorLibro.keySet().stream().sorted(ordenRanking).limit(TOP_K).forEach(masPrestados::add);
+        }
+
+        // Suma delta al contador de la clave y elimina la entrada cuando llega a cero
+        private static void sumar(Map<String, Long> contadores, String clave, long delta) {
+            contadores.merge(clave, delta, (actual, incremento) -> actual + incremento == 0 ? null : actual + incremento);
+        }
+
+        // Compara los contadores (no los títulos, que son solo descriptivos)
+        boolean coincideCon(Agregados otros) {
+            return prestamosPorSocio.equals(otros.prestamosPorSocio)
+                    && prestamosPorLibro.equals(otros.prestamosPorLibro)
+                    && prestamosPorMes.equals(otros.prestamosPorMes)
+                    && librosPorLocalizacion.equals(otros.librosPorLocalizacion)
+                    && disponiblesPorLocalizacion.equals(otros.disponiblesPorLocalizacion)
+                    && masPrestados.equals(otros.masPrestados);
+        }
+    }
+
+    public EstadisticasCirculacion(Repositorio<Libro> libroRepositorio, Repositorio<Prestamo> prestamoRepositorio) {
+        this.libroRepositorio = libroRepositorio;
+        this.prestamoRepositorio = prestamoRepositorio;
+        // Patrón Observer: cada cambio en los repositorios actualiza los contadores (se registran al inicializar)
+        observadorLibros = new ObservadorEntidad<Libro>() {
+            @Override
+            public void entidadGuardada(Libro libro) {
+                libroGuardado(libro);
+            }
+
+            @Override
+            public void entidadesEliminadas(List<Libro> libros) {
+                librosEliminados(libros);
+            }
+        };
+        observadorPrestamos = new ObservadorEntidad<Prestamo>() {
+            @Override
+            public void entidadGuardada(Prestamo prestamo) {
+                prestamoGuardado(prestamo);
+            }
+
+            @Override
+            public void entidadesEliminadas(List<Prestamo> prestamos) {
+                prestamosEliminados(prestamos);
+            }
+        };
+    }
+
+    // Metodo para cargar los contadores a partir del contenido actual de los repositorios
+    public void inicializar() {
+        synchronized (bloqueoInicializacion) {
+            if (inicializada) {
+                return;
+            }
+            ArrayList<Libro> libros = libroRepositorio.obtenerTodosYObservar(observadorLibros);
+            ArrayList<Prestamo> prestamos = prestamoRepositorio.obtenerTodosYObservar(observadorPrestamos);
+            Agregados calculados = calcular(libros, prestamos);
+            synchronized (this) {
+                agregados = calculados;
+                for (Runnable cambio : cambiosPendientes) {
+                    cambio.run();
+                }
+                cambiosPendientes.clear();
+                inicializada = true;
+            }
+        }
+    }
+
+    private void asegurarInicializada() {
+        if (!inicializada) {
+            inicializar();
+        }
+    }
+
+    // Metodo para recalcular todos los agregados desde los repositorios usando streams paralelos
+    public Agregados recalcular() {
+        return calcular(libroRepositorio.obtenerTodos(), prestamoRepositorio.obtenerTodos());
+    }
+
+    private static Agregados calcular(List<Libro> libros, List<Prestamo> prestamos) {
+        Agregados resultado = new Agregados();
+        resultado.prestamosPorSocio.putAll(prestamos.parallelStream()
+                .collect(Collectors.groupingByConcurrent(Prestamo::getNumeroSocio, Collectors.counting())));
+        resultado.prestamosPorLibro.putAll(prestamos.parallelStream()
+                .collect(Collectors.groupingByConcurrent(Prestamo::getCodigoLibro, Collectors.counting())));
+        resultado.prestamosPorMes.putAll(prestamos.parallelStream()
+                .collect(Collectors.groupingByConcurrent(prestamo -> mesDe(prestamo.getFechaPrestamo()), Collectors.counting())));
+        resultado.librosPorLocalizacion.putAll(libros.parallelStream()
+                .collect(Collectors.groupingByConcurrent(Libro::getLocalizacion, Collectors.counting())));
+        resultado.disponiblesPorLocalizacion.putAll(libros.parallelStream()
+                .filter(Libro::isDisponible)
+                .collect(Collectors.groupingByConcurrent(Libro::getLocalizacion, Collectors.counting())));
+        resultado.titulos.putAll(libros.parallelStream()
+                .collect(Collectors.toConcurrentMap(Libro::getCodigo, Libro::getTitulo, (primero, segundo) -> primero)));
+        resultado.masPrestados.addAll(resultado.prestamosPorLibro.entrySet().parallelStream()
+                .map(Map.Entry::getKey)
+                .sorted(resultado.ordenRanking)
+                .limit(TOP_K)
+                .collect(Collectors.toList()));
+        return resultado;
+    }
+
+    // Metodo para verificar que los contadores incrementales coinciden con un recálculo completo
+    public boolean verificar() {
+        asegurarInicializada();
+        Agregados recalculados = recalcular();
+        synchronized (this) {
+            return agregados.coincideCon(recalculados);
+        }
+    }
+
+    // Métodos de consulta: leen los contadores materializados en O(1)
+    public long getPrestamosPorSocio(String numeroSocio) {
+        asegurarInicializada();
+        synchronized (this) {
+            return agregados.prestamosPorSocio.getOrDefault(numeroSocio, 0L);
+        }
+    }
+
+    public long getPrestamosPorLibro(String codigoLibro) {
+        asegurarInicializada();
+        synchronized (this) {
+            return agregados.prestamosPorLibro.getOrDefault(codigoLibro, 0L);
+        }
+    }
+
+    // Mes en formato AAAA-MM
+    public long getPrestamosPorMes(String mes) {
+        asegurarInicializada();
+        synchronized (this) {
+            return agregados.prestamosPorMes.getOrDefault(mes, 0L);
+        }
+    }
+
+    // Proporción de libros disponibles en la localización (0 si no hay libros)
+    public double getDisponibilidad(String localizacion) {
+        asegurarInicializada();
+        synchronized (this) {
+            long total = agregados.librosPorLocalizacion.getOrDefault(localizacion, 0L);
+            return total == 0 ? 0 : (double) agregados.disponiblesPorLocalizacion.getOrDefault(localizacion, 0L) / total;
+        }
+    }
+
+    public String getTitulo(String codigoLibro) {
+        asegurarInicializada();
+        synchronized (this) {
+            return agregados.titulos.getOrDefault(codigoLibro, "(desconocido)");
+        }
+    }
+
+    // Códigos de los TOP_K libros más prestados, de mayor a menor
+    public List<String> getMasPrestados() {
+        asegurarInicializada();
+        synchronized (this) {
+            return new ArrayList<>(agregados.masPrestados);
+        }
+    }
+
+    // Copias de los contadores completos, para listados y paneles
+    public Map<String, Long> getPrestamosPorSocio() {
+        asegurarInicializada();
+        synchronized (this) {
+            return new HashMap<>(agregados.prestamosPorSocio);
+        }
+    }
+
+    public Map<String, Long> getPrestamosPorMes() {
+        asegurarInicializada();
+        synchronized (this) {
+            return new HashMap<>(agregados.prestamosPorMes);
+        }
+    }
+
+    public Set<String> getLocalizaciones() {
+        asegurarInicializada();
+        synchronized (this) {
+            return new HashSet<>(agregados.librosPorLocalizacion.keySet());
+        }
+    }
+
+    private void libroGuardado(Libro libro) {
+        aplicar(() -> agregados.sumarLibro(libro, 1));
+    }
+
+    private void librosEliminados(List<Libro> libros) {
+        aplicar(() -> {
+            for (Libro libro : libros) {
+                agregados.sumarLibro(libro, -1);
+            }
+        });
+    }
+
+    private void prestamoGuardado(Prestamo prestamo) {
+        aplicar(() -> agregados.sumarPrestamo(prestamo));
+    }
+
+    private void prestamosEliminados(List<Prestamo> prestamos) {
+        aplicar(() -> agregados.restarPrestamos(prestamos));
+    }
+
+    // Aplica un cambio a los contadores o lo encola si todavía se están calculando los iniciales
+    private synchronized void aplicar(Runnable cambio) {
+        if (inicializada) {
+            cambio.run();
+        } else {
+            cambiosPendientes.add(cambio);
+        }
+    }
+
+    // Metodo para obtener el mes (AAAA-MM) de una fecha AAAA-MM-DD o AAAA/MM/DD
+    static String mesDe(String fecha) {
+        String[] partes = fecha.split("[-/]");
+        if (partes.length < 2) {
+            return "desconocido";
+        }
+        return partes[0] + "-" + partes[1];
+    }
+}
+
 // Clase ServicioBiblioteca que maneja la lógica de negocio
 // **Principios SOLID**:
 // - SRP: Gestiona la interacción entre repositorios y casos de uso de la biblioteca.
@@ -483,12 +1271,39 @@ class ServicioBiblioteca {
     private Repositorio<Libro> libroRepositorio; // Repositorio de libros
     private Repositorio<Socio> socioRepositorio; // Repositorio de socios
     private Repositorio<Prestamo> prestamoRepositorio; // Repositorio de préstamos
+    private EstadisticasCirculacion estadisticas; // Estadísticas de circulación (actualizadas incrementalmente)
 
     // Constructor para inyectar dependencias (Principio DIP)
     public ServicioBiblioteca(Repositorio<Libro> libroRepositorio, Repositorio<Socio> socioRepositorio, Repositorio<Prestamo> prestamoRepositorio) {
         this.libroRepositorio = libroRepositorio;
         this.socioRepositorio = socioRepositorio;
         this.prestamoRepositorio = prestamoRepositorio;
+        this.estadisticas = new EstadisticasCirculacion(libroRepositorio, prestamoRepositorio);
+    }
+    // Metodo para obtener las estadísticas de circulación
+    public EstadisticasCirculacion getEstadisticas() {
+        return estadisticas;
+    }
+    // Metodo para precargar en paralelo los tres repositorios y, después, las estadísticas.
+    // Se ejecuta en hilos de segundo plano; alCompletar recibe el nombre de cada tarea terminada.
+    public CompletableFuture<Void> precargar(Consumer<String> alCompletar) {
+        CompletableFuture<Void> libros = CompletableFuture.runAsync(() -> {
+            libroRepositorio.precargar();
+            alCompletar.accept("libros");
+        });
+        CompletableFuture<Void> socios = CompletableFuture.runAsync(() -> {
+            socioRepositorio.precargar();
+            alCompletar.accept("socios");
+        });
+        CompletableFuture<Void> prestamos = CompletableFuture.runAsync(() -> {
+            prestamoRepositorio.precargar();
+            alCompletar.accept("préstamos");
+        });
+        CompletableFuture<Void> estadisticasCargadas = CompletableFuture.allOf(libros, prestamos).thenRunAsync(() -> {
+            estadisticas.inicializar();
+            alCompletar.accept("estadísticas");
+        });
+        return CompletableFuture.allOf(socios, estadisticasCargadas);
     }
     // Metodo para registrar un nuevo socio
     public void registrarSocio(String numero, String nombre, String direccion) {
@@ -552,6 +1367,40 @@ class ServicioBiblioteca {
             System.out.printf("%-15s %-15s %-20s%n", prestamo.getNumeroSocio(), prestamo.getCodigoLibro(), prestamo.getFechaPrestamo());
         }
     }
+    // Metodo para mostrar las estadísticas de circulación (en consola)
+    public void verEstadisticas() {
+        System.out.println("Libros más prestados:");
+        System.out.printf("%-10s %-30s %-10s%n", "Código", "Título", "Préstamos");
+        System.out.println("---------------------------------------------------");
+        for (String codigo : estadisticas.getMasPrestados()) {
+            System.out.printf("%-10s %-30s %-10d%n", codigo, estadisticas.getTitulo(codigo), estadisticas.getPrestamosPorLibro(codigo));
+        }
+        System.out.println("Préstamos por socio:");
+        estadisticas.getPrestamosPorSocio().forEach((socio, total) -> System.out.printf("%-15s %-10d%n", socio, total));
+        System.out.println("Préstamos por mes:");
+        estadisticas.getPrestamosPorMes().forEach((mes, total) -> System.out.printf("%-15s %-10d%n", mes, total));
+        System.out.println("Disponibilidad por localización:");
+        for (String localizacion : estadisticas.getLocalizaciones()) {
+            System.out.printf("%-20s %6.1f%%%n", localizacion, estadisticas.getDisponibilidad(localizacion) * 100);
+        }
+    }
+}
+
+// Clase TiemposArranque para medir las fases del arranque de la aplicación
+// Principio SRP: Solo registra y muestra (en consola) el tiempo transcurrido hasta cada fase.
+class TiemposArranque {
+    private static final long INICIO = System.nanoTime(); // Instante de carga de la clase (inicio de main)
+
+    // Metodo para marcar el inicio del arranque e informar cuánto tardó la JVM en llegar a main
+    public static void iniciar() {
+        ProcessHandle.current().info().startInstant().ifPresent(inicioProceso ->
+                System.out.printf("[arranque] %-40s %6d ms%n", "JVM hasta main", Duration.between(inicioProceso, Instant.now()).toMillis()));
+    }
+
+    // Metodo para registrar una fase con los milisegundos transcurridos desde main
+    public static void registrar(String fase) {
+        System.out.printf("[arranque] %-40s %6d ms%n", fase, (System.nanoTime() - INICIO) / 1_000_000);
+    }
 }
 
 // Clase BibliotecaGUI (Interfaz gráfica)
@@ -560,8 +1409,11 @@ class ServicioBiblioteca {
 // **Patrones de diseño**:
 // - Observer: Implementa la interfaz Observador para reaccionar a cambios en los repositorios.
 public class BibliotecaGUI extends JFrame implements Observador {
+    private static final int TAREAS_PRECARGA = 4; // Libros, socios, préstamos y estadísticas
     // Atributo para el servicio de la biblioteca
     private ServicioBiblioteca servicioBiblioteca;
+    private JTabbedPane tabbedPane; // Pestañas (su contenido se construye al seleccionarlas por primera vez)
+    private JProgressBar barraPrecarga; // Progreso de la precarga de datos en segundo plano
     // Constructor de la GUI
     public BibliotecaGUI(ServicioBiblioteca servicioBiblioteca) {
         this.servicioBiblioteca = servicioBiblioteca;
@@ -589,31 +1441,76 @@ public class BibliotecaGUI extends JFrame implements Observador {
         menuBar.add(menuArchivo);
         setJMenuBar(menuBar);
 
-        // Crear panel de pestañas
-        JTabbedPane tabbedPane = new JTabbedPane();
+        // Crear panel de pestañas vacías; el contenido se construye en la primera selección
+        tabbedPane = new JTabbedPane();
+        tabbedPane.addTab("Registrar", new JPanel(new BorderLayout()));
+        tabbedPane.addTab("Eliminar", new JPanel(new BorderLayout()));
+        tabbedPane.addTab("Ver", new JPanel(new BorderLayout()));
+        tabbedPane.addChangeListener(e -> construirPestana(tabbedPane.getSelectedIndex()));
 
-        // Panel de registro
+        // Barra de progreso de la precarga
+        barraPrecarga = new JProgressBar(0, TAREAS_PRECARGA);
+        barraPrecarga.setStringPainted(true);
+        barraPrecarga.setString("Cargando datos...");
+
+        // Añadir panel de pestañas y barra de progreso al JFrame
+        add(tabbedPane, BorderLayout.CENTER);
+        add(barraPrecarga, BorderLayout.SOUTH);
+    }
+    // Metodo para mostrar la ventana y arrancar en segundo plano la precarga de los repositorios
+    public void iniciar() {
+        setVisible(true);
+        TiemposArranque.registrar("ventana visible");
+        servicioBiblioteca.precargar(tarea -> {
+            TiemposArranque.registrar("precarga de " + tarea);
+            SwingUtilities.invokeLater(() -> barraPrecarga.setValue(barraPrecarga.getValue() + 1));
+        }).whenComplete((resultado, error) -> SwingUtilities.invokeLater(() -> {
+            TiemposArranque.registrar(error == null ? "precarga completa" : "precarga fallida");
+            barraPrecarga.setString(error == null ? "Datos cargados" : "Error cargando datos: " + error.getMessage());
+        }));
+        // La pestaña inicial se construye después de pintar la ventana
+        SwingUtilities.invokeLater(() -> {
+            construirPestana(tabbedPane.getSelectedIndex());
+            TiemposArranque.registrar("primera pestaña lista para usar");
+        });
+    }
+    // Metodo para construir el contenido de una pestaña la primera vez que se selecciona
+    private void construirPestana(int indice) {
+        JPanel contenedor = (JPanel) tabbedPane.getComponentAt(indice);
+        if (contenedor.getComponentCount() > 0) {
+            return; // Ya construida
+        }
+        switch (indice) {
+            case 0 -> contenedor.add(createPanelRegistro(), BorderLayout.CENTER);
+            case 1 -> contenedor.add(createPanelEliminacion(), BorderLayout.CENTER);
+            default -> contenedor.add(createPanelVisualizacion(), BorderLayout.CENTER);
+        }
+        contenedor.revalidate();
+        contenedor.repaint();
+    }
+    // Metodo para crear el panel de registro
+    private JPanel createPanelRegistro() {
         JPanel panelRegistro = new JPanel(new GridLayout(3, 1));
         panelRegistro.add(createRegistroSocioPanel());
         panelRegistro.add(createRegistroLibroPanel());
         panelRegistro.add(createRegistroPrestamoPanel());
-        tabbedPane.addTab("Registrar", panelRegistro);
-
-        // Panel de eliminación
+        return panelRegistro;
+    }
+    // Metodo para crear el panel de eliminación
+    private JPanel createPanelEliminacion() {
         JPanel panelEliminacion = new JPanel(new GridLayout(2, 1));
         panelEliminacion.add(createEliminarSocioPanel());
         panelEliminacion.add(createEliminarLibroPanel());
-        tabbedPane.addTab("Eliminar", panelEliminacion);
-
-        // Panel de visualización
-        JPanel panelVisualizacion = new JPanel(new GridLayout(3, 1));
+        return panelEliminacion;
+    }
+    // Metodo para crear el panel de visualización
+    private JPanel createPanelVisualizacion() {
+        JPanel panelVisualizacion = new JPanel(new GridLayout(4, 1));
         panelVisualizacion.add(createVerSociosPanel());
         panelVisualizacion.add(createVerLibrosPanel());
         panelVisualizacion.add(createVerPrestamosPanel());
-        tabbedPane.addTab("Ver", panelVisualizacion);
-
-        // Añadir panel de pestañas al JFrame
-        add(tabbedPane, BorderLayout.CENTER);
+        panelVisualizacion.add(createVerEstadisticasPanel());
+        return panelVisualizacion;
     }
     // Metodos para crear paneles de la GUI
     private JPanel createRegistroSocioPanel() {
@@ -626,8 +1523,7 @@ public class BibliotecaGUI extends JFrame implements Observador {
             if (nombre == null) return; // Botón cancelar
             String direccion = JOptionPane.showInputDialog(this, "Ingrese la dirección del socio:");
             if (direccion == null) return; // Botón cancelar
-            servicioBiblioteca.registrarSocio(numero, nombre, direccion);
-            JOptionPane.showMessageDialog(this, "Socio registrado correctamente");
+            ejecutarEnSegundoPlano(() -> servicioBiblioteca.registrarSocio(numero, nombre, direccion), "Socio registrado correctamente");
         });
         panel.add(btnRegistrarSocio, BorderLayout.CENTER);
         return panel;
@@ -643,8 +1539,7 @@ public class BibliotecaGUI extends JFrame implements Observador {
             if (codigoLibro == null) return; // Botón cancelar
             String fechaPrestamo = JOptionPane.showInputDialog(this, "Ingrese la fecha del préstamo (YYYY-MM-DD):");
             if (fechaPrestamo == null) return; // Botón cancelar
-            servicioBiblioteca.registrarPrestamo(numeroSocio, codigoLibro, fechaPrestamo);
-            JOptionPane.showMessageDialog(this, "Préstamo registrado correctamente");
+            ejecutarEnSegundoPlano(() -> servicioBiblioteca.registrarPrestamo(numeroSocio, codigoLibro, fechaPrestamo), "Préstamo registrado correctamente");
         });
         panel.add(btnRegistrarPrestamo, BorderLayout.CENTER);
         return panel;
@@ -667,8 +1562,7 @@ public class BibliotecaGUI extends JFrame implements Observador {
             String signatura = JOptionPane.showInputDialog(this, "Ingrese la signatura del libro:");
             if (signatura == null) return; // Botón cancelar
             boolean disponible = JOptionPane.showConfirmDialog(this, "¿Está disponible el libro?", "Disponibilidad", JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION;
-            servicioBiblioteca.registrarLibro(codigo, titulo, nombreAutor, localizacion, signatura, disponible);
-            JOptionPane.showMessageDialog(this, "Libro registrado correctamente");
+            ejecutarEnSegundoPlano(() -> servicioBiblioteca.registrarLibro(codigo, titulo, nombreAutor, localizacion, signatura, disponible), "Libro registrado correctamente");
         });
         panel.add(btnRegistrarLibro, BorderLayout.CENTER);
         return panel;
@@ -680,8 +1574,7 @@ public class BibliotecaGUI extends JFrame implements Observador {
         btnEliminarSocio.addActionListener(e -> {
             String numero = JOptionPane.showInputDialog(this, "Ingrese el DNI del socio a eliminar:");
             if (numero == null) return; // Botón cancelar
-            servicioBiblioteca.eliminarSocio(numero);
-            JOptionPane.showMessageDialog(this, "Socio eliminado correctamente");
+            ejecutarEnSegundoPlano(() -> servicioBiblioteca.eliminarSocio(numero), "Socio eliminado correctamente");
         });
         panel.add(btnEliminarSocio, BorderLayout.CENTER);
         return panel;
@@ -693,8 +1586,7 @@ public class BibliotecaGUI extends JFrame implements Observador {
         btnEliminarLibro.addActionListener(e -> {
             String codigo = JOptionPane.showInputDialog(this, "Ingrese el código del libro a eliminar:");
             if (codigo == null) return; // Botón cancelar
-            servicioBiblioteca.eliminarLibro(codigo);
-            JOptionPane.showMessageDialog(this, "Libro eliminado correctamente");
+            ejecutarEnSegundoPlano(() -> servicioBiblioteca.eliminarLibro(codigo), "Libro eliminado correctamente");
         });
         panel.add(btnEliminarLibro, BorderLayout.CENTER);
         return panel;
@@ -703,7 +1595,7 @@ public class BibliotecaGUI extends JFrame implements Observador {
     private JPanel createVerSociosPanel() {
         JPanel panel = new JPanel(new BorderLayout());
         JButton btnVerSocios = new JButton("Ver Socios");
-        btnVerSocios.addActionListener(e -> servicioBiblioteca.verSocios());
+        btnVerSocios.addActionListener(e -> ejecutarEnSegundoPlano(servicioBiblioteca::verSocios, null));
         panel.add(btnVerSocios, BorderLayout.CENTER);
         return panel;
     }
@@ -711,7 +1603,7 @@ public class BibliotecaGUI extends JFrame implements Observador {
     private JPanel createVerLibrosPanel() {
         JPanel panel = new JPanel(new BorderLayout());
         JButton btnVerLibros = new JButton("Ver Libros");
-        btnVerLibros.addActionListener(e -> servicioBiblioteca.verLibros());
+        btnVerLibros.addActionListener(e -> ejecutarEnSegundoPlano(servicioBiblioteca::verLibros, null));
         panel.add(btnVerLibros, BorderLayout.CENTER);
         return panel;
     }
@@ -719,10 +1611,46 @@ public class BibliotecaGUI extends JFrame implements Observador {
     private JPanel createVerPrestamosPanel() {
         JPanel panel = new JPanel(new BorderLayout());
         JButton btnVerPrestamos = new JButton("Ver Préstamos");
-        btnVerPrestamos.addActionListener(e -> servicioBiblioteca.verPrestamos());
+        btnVerPrestamos.addActionListener(e -> ejecutarEnSegundoPlano(servicioBiblioteca::verPrestamos, null));
         panel.add(btnVerPrestamos, BorderLayout.CENTER);
         return panel;
     }
+    // Metodo para crear el panel de visualización de estadísticas
+    private JPanel createVerEstadisticasPanel() {
+        JPanel panel = new JPanel(new BorderLayout());
+        JButton btnVerEstadisticas = new JButton("Ver Estadísticas");
+        btnVerEstadisticas.addActionListener(e -> ejecutarEnSegundoPlano(servicioBiblioteca::verEstadisticas, null));
+        panel.add(btnVerEstadisticas, BorderLayout.CENTER);
+        return panel;
+    }
+    // Metodo para ejecutar una operación del servicio fuera del EDT (puede leer archivos o esperar a la precarga)
+    // y, al terminar, mostrar el mensaje de éxito (si lo hay) o el error (código duplicado, error de escritura...)
+    private void ejecutarEnSegundoPlano(Runnable operacion, String mensajeExito) {
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() {
+                operacion.run();
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    get();
+                    if (mensajeExito != null) {
+                        JOptionPane.showMessageDialog(BibliotecaGUI.this, mensajeExito);
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException ex) {
+                    // Algunas excepciones (p. ej. NullPointerException) no tienen mensaje: se muestra su nombre
+                    Throwable causa = ex.getCause();
+                    String mensaje = causa.getMessage() != null ? causa.getMessage() : causa.toString();
+                    JOptionPane.showMessageDialog(BibliotecaGUI.this, mensaje, "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
     // Metodo para actualizar la GUI cuando hay cambios en los repositorios
     @Override
     public void actualizar() {
@@ -731,12 +1659,18 @@ public class BibliotecaGUI extends JFrame implements Observador {
     }
     // Metodo main para ejecutar la aplicación
     public static void main(String[] args) {
+        TiemposArranque.iniciar();
         // Utilizar inyección de dependencias mediante constructor.
         Repositorio<Libro> libroRepositorio = LibroRepositorio.getInstance();
         Repositorio<Socio> socioRepositorio = SocioRepositorio.getInstance();
         Repositorio<Prestamo> prestamoRepositorio = PrestamoRepositorio.getInstance();
         ServicioBiblioteca servicioBiblioteca = new ServicioBiblioteca(libroRepositorio, socioRepositorio, prestamoRepositorio);
-        BibliotecaGUI bibliotecaGUI = new BibliotecaGUI(servicioBiblioteca);
-        bibliotecaGUI.setVisible(true);
+        TiemposArranque.registrar("servicio creado");
+        // La GUI se construye y muestra en el hilo de eventos de Swing (EDT)
+        SwingUtilities.invokeLater(() -> {
+            BibliotecaGUI bibliotecaGUI = new BibliotecaGUI(servicioBiblioteca);
+            TiemposArranque.registrar("ventana construida");
+            bibliotecaGUI.iniciar();
+        });
     }
 }
\ No newline at end of file
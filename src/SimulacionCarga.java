@@ -0,0 +1,396 @@
+// Simulación de carga: varios mostradores concurrentes trabajando contra ServicioBiblioteca
+// para reproducir la lentitud de las horas punta sin tocar los archivos reales de la biblioteca.
+//
+// Uso (JDK 21, todo local y sin red):
+//   java -cp <clases> SimulacionCarga mostradores=50 operaciones=200 libros=5000 socios=2000 \
+//        prestamos=10000 mezcla=prestamo:50,socio:20,eliminarLibro:5,listado:25 semilla=42
+// Todos los parámetros son opcionales. Los datos se generan en un directorio temporal
+// (o en directorio=<ruta>, que debe estar vacío o no existir) que se indica al final de la ejecución.
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+// Clase SimulacionCarga (herramienta de línea de comandos)
+// **Principios SOLID**:
+// - SRP: Solo genera carga, mide latencias y comprueba la integridad de los datos.
+// - DIP: Trabaja contra ServicioBiblioteca y Repositorio<T>, igual que la GUI.
+// Cada mostrador es un hilo virtual que ejecuta su propia secuencia aleatoria de operaciones.
+public class SimulacionCarga {
+    // Operaciones que puede realizar un mostrador
+    enum Operacion { PRESTAMO, SOCIO, ELIMINAR_LIBRO, LISTADO }
+
+    private final Map<String, String> parametros;
+    private final int mostradores;
+    private final int operacionesPorMostrador;
+    private final int libros;
+    private final int socios;
+    private final int prestamos;
+    private final long semilla;
+    private final EnumMap<Operacion, Integer> mezcla;
+    private final int pesoTotal;
+
+    private Repositorio<Libro> libroRepositorio;
+    private Repositorio<Socio> socioRepositorio;
+    private Repositorio<Prestamo> prestamoRepositorio;
+    private ServicioBiblioteca servicioBiblioteca;
+
+    // Estado esperado, para la comprobación de integridad posterior
+    private final Set<String> librosEsperados = ConcurrentHashMap.newKeySet();
+    private final Set<String> sociosEsperados = ConcurrentHashMap.newKeySet();
+    private final Map<String, LongAdder> prestamosEsperados = new ConcurrentHashMap<>();
+    private String[] codigosLibro; // Libros generados (los préstamos se hacen sobre ellos)
+    private String[] numerosSocio; // Socios generados
+
+    public SimulacionCarga(Map<String, String> parametros) {
+        this.parametros = parametros;
+        this.mostradores = entero("mostradores", 50, 1);
+        this.operacionesPorMostrador = entero("operaciones", 200, 1);
+        this.libros = entero("libros", 5000, 0);
+        this.socios = entero("socios", 2000, 0);
+        this.prestamos = entero("prestamos", 10000, 0);
+        try {
+            this.semilla = Long.parseLong(parametros.getOrDefault("semilla", "42").trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parámetro semilla inválido: '" + parametros.get("semilla") + "' (se esperaba un entero)");
+        }
+        this.mezcla = leerMezcla(parametros.getOrDefault("mezcla", "prestamo:50,socio:20,eliminarLibro:5,listado:25"));
+        this.pesoTotal = mezcla.values().stream().mapToInt(Integer::intValue).sum();
+        if (pesoTotal <= 0) {
+            throw new IllegalArgumentException("La mezcla debe tener al menos una operación con peso positivo");
+        }
+        // Los préstamos y las bajas eligen libros y socios al azar entre los generados
+        boolean usaPrestamos = prestamos > 0 || mezcla.getOrDefault(Operacion.PRESTAMO, 0) > 0;
+        if (libros == 0 && (usaPrestamos || mezcla.getOrDefault(Operacion.ELIMINAR_LIBRO, 0) > 0)) {
+            throw new IllegalArgumentException("libros debe ser mayor que 0 si hay préstamos o bajas de libros");
+        }
+        if (socios == 0 && usaPrestamos) {
+            throw new IllegalArgumentException("socios debe ser mayor que 0 si hay préstamos");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> parametros = new HashMap<>();
+        for (String arg : args) {
+            String[] claveValor = arg.split("=", 2);
+            if (claveValor.length != 2) {
+                System.out.println("Parámetro inválido (se esperaba clave=valor): " + arg);
+                System.exit(2);
+            }
+            parametros.put(claveValor[0], claveValor[1]);
+        }
+        // Los parámetros se validan antes de crear nada en disco
+        SimulacionCarga simulacion;
+        try {
+            simulacion = new SimulacionCarga(parametros);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+        // El directorio de datos debe fijarse antes de usar cualquier repositorio
+        String directorio;
+        if (parametros.containsKey("directorio")) {
+            directorio = parametros.get("directorio");
+            Path ruta = Paths.get(directorio);
+            if (Files.exists(ruta) && !directorioVacio(ruta)) {
+                // Con datos previos la comprobación de integridad no sería válida
+                System.out.println("El directorio de datos debe estar vacío o no existir: " + directorio);
+                System.exit(2);
+            }
+            Files.createDirectories(ruta);
+        } else {
+            directorio = Files.createTempDirectory("biblioteca-carga").toString();
+        }
+        System.setProperty("biblioteca.directorioDatos", directorio);
+
+        boolean integra = simulacion.ejecutar();
+        System.out.println("Datos de la simulación en: " + directorio);
+        System.exit(integra ? 0 : 1);
+    }
+
+    // Metodo para comprobar si una ruta es un directorio sin ningún archivo
+    private static boolean directorioVacio(Path ruta) throws IOException {
+        if (!Files.isDirectory(ruta)) {
+            return false;
+        }
+        try (Stream<Path> contenido = Files.list(ruta)) {
+            return contenido.findAny().isEmpty();
+        }
+    }
+
+    // Metodo principal de la simulación: genera datos, lanza los mostradores, informa y verifica
+    public boolean ejecutar() throws InterruptedException {
+        libroRepositorio = LibroRepositorio.getInstance();
+        socioRepositorio = SocioRepositorio.getInstance();
+        prestamoRepositorio = PrestamoRepositorio.getInstance();
+        servicioBiblioteca = new ServicioBiblioteca(libroRepositorio, socioRepositorio, prestamoRepositorio);
+
+        generarDatos(libros, socios, prestamos);
+        servicioBiblioteca.precargar(tarea -> { }).join(); // Índices y estadísticas cargados antes de medir
+
+        System.out.printf("Simulando %d mostradores x %d operaciones, mezcla %s%n", mostradores, operacionesPorMostrador, mezcla);
+        long[][] latencias = new long[mostradores][operacionesPorMostrador];
+        Operacion[][] tipos = new Operacion[mostradores][operacionesPorMostrador];
+        EnumMap<Operacion, LongAdder> errores = new EnumMap<>(Operacion.class);
+        for (Operacion operacion : Operacion.values()) {
+            errores.put(operacion, new LongAdder());
+        }
+        CountDownLatch salida = new CountDownLatch(1); // Todos los mostradores empiezan a la vez
+        long inicio;
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int m = 0; m < mostradores; m++) {
+                int mostrador = m;
+                ejecutor.submit(() -> {
+                    salida.await();
+                    atender(mostrador, latencias[mostrador], tipos[mostrador], errores);
+                    return null;
+                });
+            }
+            inicio = System.nanoTime();
+            salida.countDown();
+        } // close() espera a que terminen todos los mostradores
+        long fin = System.nanoTime();
+
+        informar(latencias, tipos, errores, fin - inicio);
+        return verificarIntegridad();
+    }
+
+    // Metodo para generar el conjunto de datos inicial a través del servicio
+    private void generarDatos(int libros, int socios, int prestamos) {
+        long inicio = System.nanoTime();
+        Random random = new Random(semilla);
+        codigosLibro = new String[libros];
+        for (int i = 0; i < libros; i++) {
+            codigosLibro[i] = "L" + i;
+            servicioBiblioteca.registrarLibro(codigosLibro[i], "Titulo " + i, "Autor " + random.nextInt(500),
+                    "Sala " + random.nextInt(10), "S-" + i, random.nextInt(4) != 0);
+            librosEsperados.add(codigosLibro[i]);
+        }
+        numerosSocio = new String[socios];
+        for (int i = 0; i < socios; i++) {
+            numerosSocio[i] = String.valueOf(10_000_000 + i);
+            servicioBiblioteca.registrarSocio(numerosSocio[i], "Socio " + i, "Calle " + random.nextInt(1000));
+            sociosEsperados.add(numerosSocio[i]);
+        }
+        for (int i = 0; i < prestamos; i++) {
+            registrarPrestamo(random);
+        }
+        System.out.printf("Datos generados: %d libros, %d socios, %d préstamos en %d ms%n",
+                libros, socios, prestamos, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    // Metodo que ejecuta la secuencia de operaciones de un mostrador midiendo cada una
+    private void atender(int mostrador, long[] latencias, Operacion[] tipos, EnumMap<Operacion, LongAdder> errores) {
+        Random random = new Random(semilla + mostrador + 1);
+        int sociosNuevos = 0;
+        for (int i = 0; i < operacionesPorMostrador; i++) {
+            Operacion operacion = elegirOperacion(random);
+            long inicio = System.nanoTime();
+            try {
+                switch (operacion) {
+                    case PRESTAMO -> registrarPrestamo(random);
+                    case SOCIO -> {
+                        String numero = "M" + mostrador + "-" + (++sociosNuevos); // Único por mostrador
+                        servicioBiblioteca.registrarSocio(numero, "Socio " + numero, "Mostrador " + mostrador);
+                        sociosEsperados.add(numero);
+                    }
+                    case ELIMINAR_LIBRO -> {
+                        String codigo = codigosLibro[random.nextInt(codigosLibro.length)];
+                        servicioBiblioteca.eliminarLibro(codigo);
+                        librosEsperados.remove(codigo);
+                    }
+                    case LISTADO -> {
+                        switch (random.nextInt(3)) {
+                            case 0 -> libroRepositorio.obtenerTodos();
+                            case 1 -> socioRepositorio.obtenerTodos();
+                            default -> prestamoRepositorio.obtenerTodos();
+                        }
+                    }
+                }
+            } catch (RuntimeException e) {
+                errores.get(operacion).increment();
+            }
+            latencias[i] = System.nanoTime() - inicio;
+            tipos[i] = operacion;
+        }
+    }
+
+    private void registrarPrestamo(Random random) {
+        String socio = numerosSocio[random.nextInt(numerosSocio.length)];
+        String libro = codigosLibro[random.nextInt(codigosLibro.length)];
+        String fecha = String.format("2024-%02d-%02d", 1 + random.nextInt(12), 1 + random.nextInt(28));
+        servicioBiblioteca.registrarPrestamo(socio, libro, fecha);
+        prestamosEsperados.computeIfAbsent(socio + ";" + libro + ";" + fecha, clave -> new LongAdder()).increment();
+    }
+
+    private Operacion elegirOperacion(Random random) {
+        int valor = random.nextInt(pesoTotal);
+        for (Map.Entry<Operacion, Integer> entrada : mezcla.entrySet()) {
+            valor -= entrada.getValue();
+            if (valor < 0) {
+                return entrada.getKey();
+            }
+        }
+        throw new IllegalStateException("Mezcla de operaciones inconsistente");
+    }
+
+    // Metodo para mostrar el rendimiento global y los percentiles de latencia por operación
+    private void informar(long[][] latencias, Operacion[][] tipos, EnumMap<Operacion, LongAdder> errores, long duracionNanos) {
+        EnumMap<Operacion, List<Long>> porOperacion = new EnumMap<>(Operacion.class);
+        long total = 0;
+        for (int m = 0; m < latencias.length; m++) {
+            for (int i = 0; i < latencias[m].length; i++) {
+                porOperacion.computeIfAbsent(tipos[m][i], operacion -> new ArrayList<>()).add(latencias[m][i]);
+                total++;
+            }
+        }
+        double segundos = duracionNanos / 1e9;
+        System.out.printf("Duración: %.2f s, operaciones: %d, rendimiento: %.1f ops/s%n", segundos, total, total / segundos);
+        System.out.printf("%-15s %10s %8s %12s %12s %12s %12s%n", "Operación", "Cantidad", "Errores", "p50 (ms)", "p99 (ms)", "p999 (ms)", "máx (ms)");
+        System.out.println("-----------------------------------------------------------------------------------");
+        List<Long> todas = new ArrayList<>();
+        for (Map.Entry<Operacion, List<Long>> entrada : porOperacion.entrySet()) {
+            long[] ordenadas = entrada.getValue().stream().mapToLong(Long::longValue).sorted().toArray();
+            imprimirFila(entrada.getKey().name(), ordenadas, errores.get(entrada.getKey()).sum());
+            todas.addAll(entrada.getValue());
+        }
+        long erroresTotales = errores.values().stream().mapToLong(LongAdder::sum).sum();
+        imprimirFila("TOTAL", todas.stream().mapToLong(Long::longValue).sorted().toArray(), erroresTotales);
+    }
+
+    private static void imprimirFila(String nombre, long[] ordenadas, long errores) {
+        System.out.printf("%-15s %10d %8d %12.3f %12.3f %12.3f %12.3f%n", nombre, ordenadas.length, errores,
+                percentil(ordenadas, 0.50), percentil(ordenadas, 0.99), percentil(ordenadas, 0.999),
+                ordenadas.length == 0 ? 0 : ordenadas[ordenadas.length - 1] / 1e6);
+    }
+
+    // Percentil por el método del rango más cercano, en milisegundos
+    static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int indice = (int) Math.ceil(p * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, Math.min(indice, ordenadas.length - 1))] / 1e6;
+    }
+
+    // Metodo para comprobar que no se perdieron ni duplicaron registros durante la simulación.
+    // Se leen los archivos directamente (no la caché de los repositorios) para comprobar lo que quedó en disco.
+    private boolean verificarIntegridad() {
+        System.out.println("Comprobación de integridad:");
+        boolean integra = compararClaves("Libros", librosEsperados, leerClaves("libros.txt"));
+        integra &= compararClaves("Socios", sociosEsperados, leerClaves("socios.txt"));
+
+        // Los préstamos no tienen clave única: se comparan como multiconjuntos de líneas socio;libro;fecha
+        Map<String, Long> encontrados = new HashMap<>();
+        for (String linea : UtilidadesArchivos.leerArchivo("prestamos.txt")) {
+            encontrados.merge(linea, 1L, Long::sum);
+        }
+        long perdidos = 0;
+        long sobrantes = 0;
+        Set<String> claves = new HashSet<>(encontrados.keySet());
+        claves.addAll(prestamosEsperados.keySet());
+        for (String clave : claves) {
+            long esperados = prestamosEsperados.containsKey(clave) ? prestamosEsperados.get(clave).sum() : 0;
+            long diferencia = encontrados.getOrDefault(clave, 0L) - esperados;
+            if (diferencia < 0) {
+                perdidos -= diferencia;
+            } else {
+                sobrantes += diferencia;
+            }
+        }
+        System.out.printf("  %-12s perdidos: %d, duplicados o inesperados: %d%n", "Préstamos", perdidos, sobrantes);
+        integra &= perdidos == 0 && sobrantes == 0;
+
+        boolean estadisticasCorrectas = servicioBiblioteca.getEstadisticas().verificar();
+        System.out.printf("  %-12s %s%n", "Estadísticas", estadisticasCorrectas ? "coinciden con el recálculo" : "NO coinciden con el recálculo");
+        integra &= estadisticasCorrectas;
+        System.out.println(integra ? "Integridad: OK" : "Integridad: FALLIDA");
+        return integra;
+    }
+
+    // Metodo para leer la primera columna (clave) de cada línea de un archivo de datos
+    private static List<String> leerClaves(String nombreArchivo) {
+        List<String> claves = new ArrayList<>();
+        for (String linea : UtilidadesArchivos.leerArchivo(nombreArchivo)) {
+            claves.add(linea.split(";", 2)[0]);
+        }
+        return claves;
+    }
+
+    private static boolean compararClaves(String nombre, Set<String> esperadas, List<String> encontradas) {
+        Map<String, Integer> apariciones = new HashMap<>();
+        for (String clave : encontradas) {
+            apariciones.merge(clave, 1, Integer::sum);
+        }
+        long perdidos = esperadas.stream().filter(clave -> !apariciones.containsKey(clave)).count();
+        long duplicados = apariciones.values().stream().filter(veces -> veces > 1).count();
+        long inesperados = apariciones.keySet().stream().filter(clave -> !esperadas.contains(clave)).count();
+        System.out.printf("  %-12s perdidos: %d, duplicados: %d, inesperados: %d%n", nombre, perdidos, duplicados, inesperados);
+        return perdidos == 0 && duplicados == 0 && inesperados == 0;
+    }
+
+    // Metodo para leer la mezcla de operaciones con el formato prestamo:50,socio:20,eliminarLibro:5,listado:25
+    private static EnumMap<Operacion, Integer> leerMezcla(String texto) {
+        EnumMap<Operacion, Integer> resultado = new EnumMap<>(Operacion.class);
+        for (String parte : texto.split(",")) {
+            String[] nombrePeso = parte.trim().split(":");
+            if (nombrePeso.length != 2) {
+                throw new IllegalArgumentException("Entrada inválida en la mezcla: '" + parte + "' (se esperaba operacion:peso)");
+            }
+            Operacion operacion = switch (nombrePeso[0]) {
+                case "prestamo" -> Operacion.PRESTAMO;
+                case "socio" -> Operacion.SOCIO;
+                case "eliminarLibro" -> Operacion.ELIMINAR_LIBRO;
+                case "listado" -> Operacion.LISTADO;
+                default -> throw new IllegalArgumentException("Operación desconocida en la mezcla: " + nombrePeso[0]
+                        + " (válidas: " + Arrays.asList("prestamo", "socio", "eliminarLibro", "listado") + ")");
+            };
+            int peso;
+            try {
+                peso = Integer.parseInt(nombrePeso[1].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Peso inválido en la mezcla: '" + parte + "' (se esperaba un entero)");
+            }
+            if (peso < 0) {
+                throw new IllegalArgumentException("Peso negativo en la mezcla: '" + parte + "'");
+            }
+            resultado.put(operacion, peso);
+        }
+        return resultado;
+    }
+
+    // Metodo para leer un parámetro entero con su valor por defecto y su mínimo admitido
+    private int entero(String clave, int porDefecto, int minimo) {
+        String texto = parametros.get(clave);
+        if (texto == null) {
+            return porDefecto;
+        }
+        int valor;
+        try {
+            valor = Integer.parseInt(texto.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parámetro " + clave + " inválido: '" + texto + "' (se esperaba un entero)");
+        }
+        if (valor < minimo) {
+            throw new IllegalArgumentException("Parámetro " + clave + " inválido: " + valor + " (debe ser al menos " + minimo + ")");
+        }
+        return valor;
+    }
+}